@@ -1,7 +1,9 @@
 import engine.DatabaseEngine;
+import storage.TableCatalog;
 
 public class Main {
     public static void main(String[] args) {
+        TableCatalog.init();
         DatabaseEngine.execute("CREATE TABLE users (id INT, name TEXT, val DECIMAL(5,3))");
 //        DatabaseEngine.execute("INSERT INTO products VALUES (1, 'Bag', 10.40)");
 //        DatabaseEngine.execute("INSERT INTO users VALUES (3,null, 67.89)");
@@ -1,15 +1,32 @@
 package engine;
 
 import model.Column;
+import model.IndexDefinition;
 import model.Row;
 import model.Table;
 import parser.*;
-import storage.TableStorage;
+import plan.Operator;
+import plan.PlanBuilder;
+import storage.TableCatalog;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class DatabaseEngine {
+    private static volatile ResultCache resultCache; // null while caching is disabled
+
+    // maxChars bounds the total size of all cached results, maxEntryChars the size of one result
+    public static void enableResultCache(long maxChars, long maxEntryChars) {
+        resultCache = new ResultCache(maxChars, maxEntryChars);
+    }
+
+    public static void disableResultCache() {
+        resultCache = null;
+    }
+
+    public static ResultCache getResultCache() {
+        return resultCache;
+    }
 
     public static void execute(String sqlQuery) {
         try {
@@ -19,11 +36,17 @@ public class DatabaseEngine {
                 case "CREATE_TABLE":
                     executeCreateTable((CreateTableQuery) query);
                     break;
+                case "CREATE_INDEX":
+                    executeCreateIndex((CreateIndexQuery) query);
+                    break;
                 case "INSERT":
                     executeInsert((InsertQuery) query);
                     break;
                 case "SELECT":
-                    executeSelect((SelectQuery) query);
+                    executeSelect((SelectQuery) query, sqlQuery);
+                    break;
+                case "EXPLAIN":
+                    executeExplain((ExplainQuery) query);
                     break;
                 default:
                     System.out.println("Query not yet supported: " + query.getType());
@@ -34,7 +57,7 @@ public class DatabaseEngine {
     }
 
     private static void executeCreateTable(CreateTableQuery query) {
-        if (TableStorage.tableExists(query.tableName)) {
+        if (TableCatalog.tableExists(query.tableName)) {
             if (query.ifNotExists) {
                 System.out.println("Table already exists: " + query.tableName);
                 return;
@@ -55,7 +78,7 @@ public class DatabaseEngine {
             }
 
             Table table = new Table(query.tableName, columns);
-            TableStorage.saveTableToCSV(table);
+            TableCatalog.createTable(table);
 
             System.out.println("Table created: " + query.tableName);
             System.out.println("Columns:");
@@ -67,13 +90,26 @@ public class DatabaseEngine {
         }
     }
 
+    private static void executeCreateIndex(CreateIndexQuery query) {
+        if (!TableCatalog.tableExists(query.tableName)) {
+            System.out.println("Table does not exist: " + query.tableName);
+            return;
+        }
+
+        TableCatalog.createIndex(query.tableName,
+                new IndexDefinition(query.indexName, query.columnName, query.method));
+
+        System.out.println("Index created: " + query.indexName + " ON " + query.tableName +
+                " (" + query.columnName + ") USING " + query.method);
+    }
+
     private static void executeInsert(InsertQuery query) {
-        if (!TableStorage.tableExists(query.tableName)) {
+        if (!TableCatalog.tableExists(query.tableName)) {
             System.out.println("Table does not exist: " + query.tableName);
             return;
         }
 
-        Table table = TableStorage.loadTableFromCSV(query.tableName);
+        Table table = TableCatalog.getTable(query.tableName);
 
         if (query.values.size() != table.columns.size()) {
             System.out.println("Column count mismatch. Expected: " + table.columns.size() +
@@ -90,8 +126,7 @@ public class DatabaseEngine {
                 validatedValues.add(validatedValue);
             }
 
-            table.rows.add(new Row(validatedValues));
-            TableStorage.saveTableToCSV(table);
+            TableCatalog.insertRow(query.tableName, new Row(validatedValues));
 
             System.out.println("Row inserted into: " + query.tableName);
         } catch (IllegalArgumentException e) {
@@ -99,77 +134,97 @@ public class DatabaseEngine {
         }
     }
 
-    private static void executeSelect(SelectQuery query) {
-        if (!TableStorage.tableExists(query.tableName)) {
+    private static void executeSelect(SelectQuery query, String sqlQuery) {
+        if (!TableCatalog.tableExists(query.tableName)) {
             System.out.println("Table does not exist: " + query.tableName);
             return;
         }
 
-        Table table = TableStorage.loadTableFromCSV(query.tableName);
-
-        // Print header with type information
-        if (query.columns.contains("*")) {
-            for (Column col : table.columns) {
-                System.out.print(col.name + " (" + col.dataType.toString() + ")\t");
+        // The version must be read before getTable: a write that lands in between then leaves
+        // the result tagged with the older version, so it is discarded on the next lookup
+        long version = TableCatalog.getEntry(query.tableName).getVersion();
+        ResultCache cache = resultCache;
+        String key = null;
+        if (cache != null) {
+            key = ResultCache.normalize(sqlQuery);
+            String cached = cache.get(key, query.tableName, version);
+            if (cached != null) {
+                System.out.print(cached);
+                return;
             }
-        } else {
-            for (String colName : query.columns) {
-                Column col = findColumn(table, colName);
-                if (col != null) {
-                    System.out.print(col.name + " (" + col.dataType.toString() + ")\t");
+        }
+
+        Operator plan = PlanBuilder.build(query, TableCatalog.getTable(query.tableName));
+        String result = printSelect(plan, cache != null ? cache.getMaxEntryChars() : 0);
+        if (result != null) {
+            cache.put(key, query.tableName, version, result);
+        }
+    }
+
+    private static void executeExplain(ExplainQuery query) {
+        if (!TableCatalog.tableExists(query.select.tableName)) {
+            System.out.println("Table does not exist: " + query.select.tableName);
+            return;
+        }
+
+        Operator plan = PlanBuilder.build(query.select, TableCatalog.getTable(query.select.tableName));
+        if (query.analyze) {
+            // Run the query to completion for its statistics, discarding the rows
+            plan.analyze();
+            plan.open();
+            try {
+                while (plan.next() != null) {
                 }
+            } finally {
+                plan.close();
             }
         }
-        System.out.println();
+        System.out.print(plan.explain(query.analyze));
+    }
+
+    // Streams the result to stdout. Also returns its text for the result cache as long as it
+    // fits in maxBufferChars; returns null if it is longer or maxBufferChars is 0.
+    private static String printSelect(Operator plan, long maxBufferChars) {
+        StringBuilder buffer = maxBufferChars > 0 ? new StringBuilder() : null;
+        StringBuilder line = new StringBuilder();
+
+        // Print header with type information
+        for (Column col : plan.getColumns()) {
+            line.append(col.name + " (" + col.dataType.toString() + ")\t");
+        }
+        line.append(System.lineSeparator());
 
         // Print separator
-        if (query.columns.contains("*")) {
-            for (Column col : table.columns) {
-                System.out.print("---\t");
-            }
-        } else {
-            for (String colName : query.columns) {
-                if (findColumn(table, colName) != null) {
-                    System.out.print("---\t");
-                }
-            }
+        for (Column col : plan.getColumns()) {
+            line.append("---\t");
         }
-        System.out.println();
+        line.append(System.lineSeparator());
+        buffer = printLine(line, buffer, maxBufferChars);
 
         // Print rows
-        for (Row row : table.rows) {
-            if (query.columns.contains("*")) {
+        plan.open();
+        try {
+            Row row;
+            while ((row = plan.next()) != null) {
                 for (String value : row.values) {
-                    System.out.print((value != null ? value : "NULL") + "\t");
-                }
-            } else {
-                for (String colName : query.columns) {
-                    int colIndex = findColumnIndex(table, colName);
-                    if (colIndex >= 0) {
-                        String value = row.values.get(colIndex);
-                        System.out.print((value != null ? value : "NULL") + "\t");
-                    }
+                    line.append((value != null ? value : "NULL") + "\t");
                 }
+                line.append(System.lineSeparator());
+                buffer = printLine(line, buffer, maxBufferChars);
             }
-            System.out.println();
+        } finally {
+            plan.close();
         }
+        return buffer != null ? buffer.toString() : null;
     }
 
-    private static Column findColumn(Table table, String columnName) {
-        for (Column col : table.columns) {
-            if (col.name.equalsIgnoreCase(columnName)) {
-                return col;
-            }
-        }
-        return null;
-    }
-
-    private static int findColumnIndex(Table table, String columnName) {
-        for (int i = 0; i < table.columns.size(); i++) {
-            if (table.columns.get(i).name.equalsIgnoreCase(columnName)) {
-                return i;
-            }
+    // Prints and clears the line; returns the buffer with the line added, or null once it would be too long
+    private static StringBuilder printLine(StringBuilder line, StringBuilder buffer, long maxBufferChars) {
+        System.out.print(line);
+        if (buffer != null) {
+            buffer = buffer.length() + line.length() <= maxBufferChars ? buffer.append(line) : null;
         }
-        return -1;
+        line.setLength(0);
+        return buffer;
     }
 }
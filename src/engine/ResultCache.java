@@ -0,0 +1,142 @@
+package engine;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// LRU cache of rendered SELECT results, bounded by the total number of characters held.
+// Each entry remembers the version of the table it was read from and is discarded on lookup
+// once that table has been modified. Results longer than maxEntryChars are not cached at all.
+public class ResultCache {
+    private final long maxChars;
+    private final long maxEntryChars;
+    private final LinkedHashMap<String, CachedResult> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalChars;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private static class CachedResult {
+        final String tableName;
+        final long tableVersion;
+        final String result;
+
+        CachedResult(String tableName, long tableVersion, String result) {
+            this.tableName = tableName;
+            this.tableVersion = tableVersion;
+            this.result = result;
+        }
+    }
+
+    public ResultCache(long maxChars, long maxEntryChars) {
+        if (maxChars <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxChars);
+        }
+        if (maxEntryChars <= 0 || maxEntryChars > maxChars) {
+            throw new IllegalArgumentException("Entry size must be positive and at most the cache size: " + maxEntryChars);
+        }
+        this.maxChars = maxChars;
+        this.maxEntryChars = maxEntryChars;
+    }
+
+    // Returns the cached result, or null if absent or the table has changed since it was cached
+    public synchronized String get(String key, String tableName, long currentVersion) {
+        CachedResult cached = entries.get(key);
+        if (cached == null || !cached.tableName.equals(tableName) || cached.tableVersion != currentVersion) {
+            if (cached != null) {
+                remove(key);
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return cached.result;
+    }
+
+    public synchronized void put(String key, String tableName, long tableVersion, String result) {
+        if (result.length() > maxEntryChars) {
+            return;
+        }
+        remove(key);
+        entries.put(key, new CachedResult(tableName, tableVersion, result));
+        totalChars += result.length();
+
+        Iterator<Map.Entry<String, CachedResult>> eldest = entries.entrySet().iterator();
+        while (totalChars > maxChars) {
+            totalChars -= eldest.next().getValue().result.length();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalChars = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getTotalChars() {
+        return totalChars;
+    }
+
+    public long getMaxChars() {
+        return maxChars;
+    }
+
+    public long getMaxEntryChars() {
+        return maxEntryChars;
+    }
+
+    private void remove(String key) {
+        CachedResult removed = entries.remove(key);
+        if (removed != null) {
+            totalChars -= removed.result.length();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    // Collapses whitespace outside of quoted literals and drops a trailing semicolon
+    public static String normalize(String sqlQuery) {
+        StringBuilder sb = new StringBuilder();
+        boolean inQuotes = false;
+        boolean pendingSpace = false;
+
+        for (int i = 0; i < sqlQuery.length(); i++) {
+            char c = sqlQuery.charAt(i);
+            if (!inQuotes && Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            if (c == '\'') {
+                inQuotes = !inQuotes;
+            }
+            sb.append(c);
+        }
+
+        int end = sb.length();
+        while (end > 0 && (sb.charAt(end - 1) == ';' || sb.charAt(end - 1) == ' ')) {
+            end--;
+        }
+        sb.setLength(end);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,118 @@
+package index;
+
+import model.DataType;
+
+import java.util.Arrays;
+
+// Open-addressing hash index from column values to row ids (positions in Table.rows).
+// Subclasses own the key array; this class keeps, per slot, the most recent row id for
+// the key and chains older rows with the same key through a per-row "next" array.
+// Null values are never indexed since they cannot match an equality lookup.
+public abstract class HashIndex {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int[] NO_ROWS = new int[0];
+
+    protected int[] heads;      // row id + 1 of the newest row per slot, 0 if the slot is empty
+    protected int mask;
+    private int[] next = new int[INITIAL_CAPACITY]; // row id + 1 of the previous row with the same key
+    private int keyCount;
+    private int rowCount;
+
+    protected HashIndex() {
+        heads = new int[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY - 1;
+    }
+
+    public static HashIndex forType(DataType dataType) {
+        switch (dataType.getBaseType()) {
+            case "INTEGER":
+            case "SMALLINT":
+                return new IntHashIndex();
+            case "BIGINT":
+                return new LongHashIndex();
+            default:
+                return new StringHashIndex();
+        }
+    }
+
+    // Adds a validated column value for the given row
+    public void add(String value, int rowId) {
+        if (value == null) {
+            return;
+        }
+        int slot = findSlot(value);
+        if (heads[slot] == 0) {
+            storeKey(slot, value);
+            keyCount++;
+        }
+        if (rowId >= next.length) {
+            next = Arrays.copyOf(next, Math.max(rowId + 1, next.length * 2));
+        }
+        next[rowId] = heads[slot];
+        heads[slot] = rowId + 1;
+        rowCount++;
+
+        if (keyCount * 4 > heads.length * 3) {
+            resize(heads.length * 2);
+        }
+    }
+
+    // Returns the ids of all rows holding the validated value, in ascending order
+    public int[] lookup(String value) {
+        if (value == null) {
+            return NO_ROWS;
+        }
+        int slot = findSlot(value);
+        if (heads[slot] == 0) {
+            return NO_ROWS;
+        }
+        int count = 0;
+        for (int id = heads[slot]; id != 0; id = next[id - 1]) {
+            count++;
+        }
+        int[] rowIds = new int[count];
+        for (int id = heads[slot]; id != 0; id = next[id - 1]) {
+            rowIds[--count] = id - 1;
+        }
+        return rowIds;
+    }
+
+    public int getKeyCount() {
+        return keyCount;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    protected static int mix(long hash) {
+        hash *= 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    // Slot holding the value's key, or the empty slot where it would be stored
+    protected abstract int findSlot(String value);
+
+    protected abstract void storeKey(int slot, String value);
+
+    // Moves the key in oldSlot of the previous key array into the current one and returns its new slot
+    protected abstract int rehashKey(int oldSlot);
+
+    // Swaps in an empty key array of the given capacity, keeping the previous one for rehashKey
+    protected abstract void allocateKeys(int capacity);
+
+    protected abstract void releaseOldKeys();
+
+    private void resize(int capacity) {
+        int[] oldHeads = heads;
+        heads = new int[capacity];
+        mask = capacity - 1;
+        allocateKeys(capacity);
+        for (int i = 0; i < oldHeads.length; i++) {
+            if (oldHeads[i] != 0) {
+                heads[rehashKey(i)] = oldHeads[i];
+            }
+        }
+        releaseOldKeys();
+    }
+}
@@ -0,0 +1,44 @@
+package index;
+
+// Hash index for INTEGER and SMALLINT columns, keyed on primitive ints
+public class IntHashIndex extends HashIndex {
+    private int[] keys = new int[heads.length];
+    private int[] oldKeys;
+
+    @Override
+    protected int findSlot(String value) {
+        return findSlot(Integer.parseInt(value));
+    }
+
+    private int findSlot(int key) {
+        int slot = mix(key) & mask;
+        while (heads[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    @Override
+    protected void storeKey(int slot, String value) {
+        keys[slot] = Integer.parseInt(value);
+    }
+
+    @Override
+    protected void allocateKeys(int capacity) {
+        oldKeys = keys;
+        keys = new int[capacity];
+    }
+
+    @Override
+    protected int rehashKey(int oldSlot) {
+        int key = oldKeys[oldSlot];
+        int slot = findSlot(key);
+        keys[slot] = key;
+        return slot;
+    }
+
+    @Override
+    protected void releaseOldKeys() {
+        oldKeys = null;
+    }
+}
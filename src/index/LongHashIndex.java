@@ -0,0 +1,44 @@
+package index;
+
+// Hash index for BIGINT columns, keyed on primitive longs
+public class LongHashIndex extends HashIndex {
+    private long[] keys = new long[heads.length];
+    private long[] oldKeys;
+
+    @Override
+    protected int findSlot(String value) {
+        return findSlot(Long.parseLong(value));
+    }
+
+    private int findSlot(long key) {
+        int slot = mix(key) & mask;
+        while (heads[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    @Override
+    protected void storeKey(int slot, String value) {
+        keys[slot] = Long.parseLong(value);
+    }
+
+    @Override
+    protected void allocateKeys(int capacity) {
+        oldKeys = keys;
+        keys = new long[capacity];
+    }
+
+    @Override
+    protected int rehashKey(int oldSlot) {
+        long key = oldKeys[oldSlot];
+        int slot = findSlot(key);
+        keys[slot] = key;
+        return slot;
+    }
+
+    @Override
+    protected void releaseOldKeys() {
+        oldKeys = null;
+    }
+}
@@ -0,0 +1,40 @@
+package index;
+
+// Hash index for all other column types, keyed on the validated value text
+public class StringHashIndex extends HashIndex {
+    private String[] keys = new String[heads.length];
+    private String[] oldKeys;
+
+    @Override
+    protected int findSlot(String value) {
+        int slot = mix(value.hashCode()) & mask;
+        while (heads[slot] != 0 && !keys[slot].equals(value)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    @Override
+    protected void storeKey(int slot, String value) {
+        keys[slot] = value;
+    }
+
+    @Override
+    protected void allocateKeys(int capacity) {
+        oldKeys = keys;
+        keys = new String[capacity];
+    }
+
+    @Override
+    protected int rehashKey(int oldSlot) {
+        String key = oldKeys[oldSlot];
+        int slot = findSlot(key);
+        keys[slot] = key;
+        return slot;
+    }
+
+    @Override
+    protected void releaseOldKeys() {
+        oldKeys = null;
+    }
+}
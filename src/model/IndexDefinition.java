@@ -0,0 +1,13 @@
+package model;
+
+public class IndexDefinition {
+    public final String name;
+    public final String columnName;
+    public final String method; // e.g., "HASH"
+
+    public IndexDefinition(String name, String columnName, String method) {
+        this.name = name;
+        this.columnName = columnName;
+        this.method = method;
+    }
+}
@@ -9,8 +9,13 @@ public class Table {
     public final List<Row> rows;
 
     public Table(String name, List<Column> columns) {
+        this(name, columns, new ArrayList<>());
+    }
+
+    // rows may be any list implementation, e.g. one that keeps row data off-heap
+    public Table(String name, List<Column> columns, List<Row> rows) {
         this.name = name;
         this.columns = columns;
-        this.rows = new ArrayList<>();
+        this.rows = rows;
     }
 }
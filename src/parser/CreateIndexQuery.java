@@ -0,0 +1,20 @@
+package parser;
+
+public class CreateIndexQuery extends Query {
+    public final String indexName;
+    public final String tableName;
+    public final String columnName;
+    public final String method;
+
+    public CreateIndexQuery(String indexName, String tableName, String columnName, String method) {
+        this.indexName = indexName;
+        this.tableName = tableName;
+        this.columnName = columnName;
+        this.method = method;
+    }
+
+    @Override
+    public String getType() {
+        return "CREATE_INDEX";
+    }
+}
@@ -0,0 +1,16 @@
+package parser;
+
+public class ExplainQuery extends Query {
+    public final SelectQuery select;
+    public final boolean analyze;
+
+    public ExplainQuery(SelectQuery select, boolean analyze) {
+        this.select = select;
+        this.analyze = analyze;
+    }
+
+    @Override
+    public String getType() {
+        return "EXPLAIN";
+    }
+}
@@ -13,10 +13,14 @@ public class SQLParser {
 
         if (query.startsWith("CREATE TABLE")) {
             return parseCreateTable(rawQuery);
+        } else if (query.startsWith("CREATE INDEX")) {
+            return parseCreateIndex(rawQuery);
         } else if (query.startsWith("INSERT INTO")) {
             return parseInsert(rawQuery);
         } else if (query.startsWith("SELECT")) {
             return parseSelect(rawQuery);
+        } else if (query.startsWith("EXPLAIN")) {
+            return parseExplain(rawQuery);
         }
 
         throw new IllegalArgumentException("Unsupported query: " + rawQuery);
@@ -52,6 +56,26 @@ public class SQLParser {
         return new CreateTableQuery(tableName, columns, ifNotExists);
     }
 
+    private static CreateIndexQuery parseCreateIndex(String query) {
+        // Pattern: CREATE INDEX indexName ON tableName (column) USING HASH
+        Pattern pattern = Pattern.compile(
+                "CREATE INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)\\s*\\(\\s*(\\w+)\\s*\\)(?:\\s+USING\\s+(\\w+))?",
+                Pattern.CASE_INSENSITIVE
+        );
+        Matcher matcher = pattern.matcher(query);
+
+        if (!matcher.find()) {
+            throw new IllegalArgumentException("Invalid CREATE INDEX syntax");
+        }
+
+        String method = matcher.group(4) != null ? matcher.group(4).toUpperCase() : null;
+        if (!"HASH".equals(method)) {
+            throw new IllegalArgumentException("Unsupported index type, only USING HASH is available");
+        }
+
+        return new CreateIndexQuery(matcher.group(1), matcher.group(2), matcher.group(3), method);
+    }
+
     private static List<String> splitColumns(String input) {
         List<String> result = new ArrayList<>();
         int bracketLevel = 0;
@@ -105,9 +129,24 @@ public class SQLParser {
         return new InsertQuery(tableName, values);
     }
 
+    private static ExplainQuery parseExplain(String query) {
+        // Pattern: EXPLAIN [ANALYZE] SELECT ...
+        Pattern pattern = Pattern.compile("EXPLAIN\\s+(ANALYZE\\s+)?(SELECT\\s.+)", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+        Matcher matcher = pattern.matcher(query.trim());
+
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid EXPLAIN syntax, only SELECT can be explained");
+        }
+
+        return new ExplainQuery(parseSelect(matcher.group(2)), matcher.group(1) != null);
+    }
+
     private static SelectQuery parseSelect(String query) {
-        // Pattern: SELECT columns FROM tableName
-        Pattern pattern = Pattern.compile("SELECT\\s+(.+?)\\s+FROM\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+        // Pattern: SELECT columns FROM tableName [WHERE column = value], value being one quoted literal or bare token
+        Pattern pattern = Pattern.compile(
+                "SELECT\\s+(.+?)\\s+FROM\\s+(\\w+)(?:\\s+WHERE\\s+(\\w+)\\s*=\\s*('[^']*'|[^\\s';]+))?\\s*;?\\s*$",
+                Pattern.CASE_INSENSITIVE
+        );
         Matcher matcher = pattern.matcher(query);
 
         if (!matcher.find()) {
@@ -125,6 +164,15 @@ public class SQLParser {
             columns.replaceAll(String::trim);
         }
 
-        return new SelectQuery(columns, tableName);
+        String whereColumn = matcher.group(3);
+        String whereValue = matcher.group(4);
+        if (whereValue != null) {
+            whereValue = whereValue.trim();
+            if (whereValue.startsWith("'") && whereValue.endsWith("'")) {
+                whereValue = whereValue.substring(1, whereValue.length() - 1);
+            }
+        }
+
+        return new SelectQuery(columns, tableName, whereColumn, whereValue);
     }
 }
\ No newline at end of file
@@ -4,14 +4,21 @@ import java.util.List;
 public class SelectQuery extends Query {
     public final List<String> columns;
     public final String tableName;
+    public final String whereColumn; // null when there is no WHERE clause
+    public final String whereValue;
 
     public SelectQuery(List<String> columns, String tableName) {
+        this(columns, tableName, null, null);
+    }
+    public SelectQuery(List<String> columns, String tableName, String whereColumn, String whereValue) {
         this.columns = columns;
         this.tableName = tableName;
+        this.whereColumn = whereColumn;
+        this.whereValue = whereValue;
     }
 
     @Override
     public String getType() {
         return "SELECT";
     }
-}
\ No newline at end of file
+}
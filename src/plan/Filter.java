@@ -0,0 +1,55 @@
+package plan;
+
+import model.Column;
+import model.Row;
+
+import java.util.List;
+
+// Keeps the rows whose column equals a value
+public class Filter extends Operator {
+    private final Operator child;
+    private final int columnIndex;
+    private final String value; // validated; null matches nothing
+
+    public Filter(Operator child, int columnIndex, String value) {
+        super(List.of(child));
+        this.child = child;
+        this.columnIndex = columnIndex;
+        this.value = value;
+    }
+
+    @Override
+    public List<Column> getColumns() {
+        return child.getColumns();
+    }
+
+    @Override
+    public String describe() {
+        return "Filter (" + child.getColumns().get(columnIndex).name + " = " +
+                (value != null ? value : "NULL") + ")";
+    }
+
+    @Override
+    protected void doOpen() {
+        child.open();
+    }
+
+    @Override
+    protected Row doNext() {
+        if (value == null) {
+            return null;
+        }
+        Row row;
+        while ((row = child.next()) != null) {
+            if (value.equals(row.values.get(columnIndex))) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    protected void doClose() {
+        child.close();
+    }
+}
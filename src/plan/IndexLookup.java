@@ -0,0 +1,55 @@
+package plan;
+
+import model.Column;
+import model.IndexDefinition;
+import model.Row;
+import model.Table;
+import storage.TableCatalog;
+
+import java.util.List;
+
+// Equality lookup through a hash index
+public class IndexLookup extends Operator {
+    private final Table table;
+    private final IndexDefinition index;
+    private final String value; // validated; null matches nothing
+    private List<Row> matches;
+    private int position;
+
+    public IndexLookup(Table table, IndexDefinition index, String value) {
+        super(List.of());
+        this.table = table;
+        this.index = index;
+        this.value = value;
+    }
+
+    @Override
+    public List<Column> getColumns() {
+        return table.columns;
+    }
+
+    @Override
+    public String describe() {
+        return "IndexLookup " + table.name + " USING " + index.name + " (" + index.columnName + " = " +
+                (value != null ? value : "NULL") + ")";
+    }
+
+    @Override
+    protected void doOpen() {
+        matches = value != null ? TableCatalog.lookup(table.name, index.columnName, value) : List.of();
+        if (matches == null) {
+            throw new IllegalStateException("Index no longer available: " + index.name);
+        }
+        position = 0;
+    }
+
+    @Override
+    protected Row doNext() {
+        return position < matches.size() ? matches.get(position++) : null;
+    }
+
+    @Override
+    protected void doClose() {
+        matches = null;
+    }
+}
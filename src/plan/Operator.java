@@ -0,0 +1,118 @@
+package plan;
+
+import model.Column;
+import model.Row;
+
+import java.util.List;
+
+// Node of a physical query plan. Rows are pulled from the root with open/next/close, and each
+// operator pulls from its children the same way. Row counts are always kept; time and bytes
+// are only measured once analyze() has been called on the tree, to keep plain queries cheap.
+public abstract class Operator {
+    protected final List<Operator> children;
+    private boolean analyzing;
+    private long rowCount;
+    private long nanos;
+    private long bytes;
+
+    protected Operator(List<Operator> children) {
+        this.children = children;
+    }
+
+    // Columns of the rows returned by next
+    public abstract List<Column> getColumns();
+
+    // One-line description used by EXPLAIN, e.g. "TableScan users"
+    public abstract String describe();
+
+    protected abstract void doOpen();
+
+    // Returns the next row, or null when there are no more
+    protected abstract Row doNext();
+
+    protected void doClose() {
+    }
+
+    public final void open() {
+        long start = analyzing ? System.nanoTime() : 0;
+        doOpen();
+        if (analyzing) {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    public final Row next() {
+        if (!analyzing) {
+            Row row = doNext();
+            if (row != null) {
+                rowCount++;
+            }
+            return row;
+        }
+
+        long start = System.nanoTime();
+        Row row = doNext();
+        nanos += System.nanoTime() - start;
+        if (row != null) {
+            rowCount++;
+            for (String value : row.values) {
+                bytes += value != null ? value.length() : 0; // approximate: one byte per character
+            }
+        }
+        return row;
+    }
+
+    public final void close() {
+        long start = analyzing ? System.nanoTime() : 0;
+        doClose();
+        if (analyzing) {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    // Turns on time and byte measurement for this operator and everything below it
+    public void analyze() {
+        analyzing = true;
+        for (Operator child : children) {
+            child.analyze();
+        }
+    }
+
+    public List<Operator> getChildren() {
+        return children;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    // Time spent in this operator including its children
+    public long getNanos() {
+        return nanos;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    // Plan tree as printed by EXPLAIN; with stats, as printed by EXPLAIN ANALYZE
+    public String explain(boolean withStats) {
+        StringBuilder sb = new StringBuilder();
+        explain(sb, 0, withStats);
+        return sb.toString();
+    }
+
+    private void explain(StringBuilder sb, int depth, boolean withStats) {
+        if (depth > 0) {
+            sb.append("  ".repeat(depth)).append("-> ");
+        }
+        sb.append(describe());
+        if (withStats) {
+            sb.append(String.format("  (rows=%d time=%.3f ms bytes=%d)", rowCount, nanos / 1_000_000.0, bytes));
+        }
+        sb.append(System.lineSeparator());
+        for (Operator child : children) {
+            child.explain(sb, depth + 1, withStats);
+        }
+    }
+}
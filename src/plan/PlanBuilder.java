@@ -0,0 +1,59 @@
+package plan;
+
+import model.IndexDefinition;
+import model.Table;
+import parser.SelectQuery;
+import storage.TableCatalog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PlanBuilder {
+
+    public static Operator build(SelectQuery query, Table table) {
+        Operator plan = buildAccess(query, table);
+
+        if (query.columns.contains("*")) {
+            return plan;
+        }
+        // Unknown columns are skipped rather than rejected
+        List<Integer> indexes = new ArrayList<>();
+        for (String colName : query.columns) {
+            int colIndex = findColumnIndex(table, colName);
+            if (colIndex >= 0) {
+                indexes.add(colIndex);
+            }
+        }
+        return new Project(plan, indexes.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    // Scan, filtered scan or index lookup depending on the WHERE clause and available indexes
+    private static Operator buildAccess(SelectQuery query, Table table) {
+        if (query.whereColumn == null) {
+            return new TableScan(table);
+        }
+
+        int colIndex = findColumnIndex(table, query.whereColumn);
+        if (colIndex < 0) {
+            throw new IllegalArgumentException("Column does not exist: " + query.whereColumn);
+        }
+        // Nothing is equal to NULL, which both operators treat as matching no rows
+        String value = query.whereValue.equalsIgnoreCase("NULL") ? null
+                : table.columns.get(colIndex).dataType.validateValue(query.whereValue);
+
+        IndexDefinition index = TableCatalog.getEntry(table.name).findIndex(query.whereColumn);
+        if (index != null) {
+            return new IndexLookup(table, index, value);
+        }
+        return new Filter(new TableScan(table), colIndex, value);
+    }
+
+    private static int findColumnIndex(Table table, String columnName) {
+        for (int i = 0; i < table.columns.size(); i++) {
+            if (table.columns.get(i).name.equalsIgnoreCase(columnName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
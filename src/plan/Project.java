@@ -0,0 +1,60 @@
+package plan;
+
+import model.Column;
+import model.Row;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Narrows rows to the selected columns
+public class Project extends Operator {
+    private final Operator child;
+    private final int[] columnIndexes;
+    private final List<Column> columns = new ArrayList<>();
+
+    public Project(Operator child, int[] columnIndexes) {
+        super(List.of(child));
+        this.child = child;
+        this.columnIndexes = columnIndexes;
+        for (int index : columnIndexes) {
+            columns.add(child.getColumns().get(index));
+        }
+    }
+
+    @Override
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public String describe() {
+        List<String> names = new ArrayList<>();
+        for (Column column : columns) {
+            names.add(column.name);
+        }
+        return "Project (" + String.join(", ", names) + ")";
+    }
+
+    @Override
+    protected void doOpen() {
+        child.open();
+    }
+
+    @Override
+    protected Row doNext() {
+        Row row = child.next();
+        if (row == null) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(columnIndexes.length);
+        for (int index : columnIndexes) {
+            values.add(row.values.get(index));
+        }
+        return new Row(values);
+    }
+
+    @Override
+    protected void doClose() {
+        child.close();
+    }
+}
@@ -0,0 +1,39 @@
+package plan;
+
+import model.Column;
+import model.Row;
+import model.Table;
+
+import java.util.List;
+
+public class TableScan extends Operator {
+    private final Table table;
+    private int position;
+
+    public TableScan(Table table) {
+        super(List.of());
+        this.table = table;
+    }
+
+    @Override
+    public List<Column> getColumns() {
+        return table.columns;
+    }
+
+    @Override
+    public String describe() {
+        return "TableScan " + table.name;
+    }
+
+    @Override
+    protected void doOpen() {
+        position = 0;
+    }
+
+    @Override
+    protected Row doNext() {
+        // Indexed access so off-heap tables only decode one row at a time. The catalog's row
+        // lists allow this without a lock while rows are being inserted.
+        return position < table.rows.size() ? table.rows.get(position++) : null;
+    }
+}
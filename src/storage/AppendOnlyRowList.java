@@ -0,0 +1,54 @@
+package storage;
+
+import model.Row;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+// Row list for tables shared between statements. Writers append and remove the last row while
+// holding the table's catalog lock; readers may call size and get at any time without it.
+// Each write stores the row, and any grown array, before the volatile size that publishes it,
+// so a reader that sees a size also sees every row below it.
+public class AppendOnlyRowList extends AbstractList<Row> {
+    private volatile Row[] rows = new Row[16];
+    private volatile int size;
+
+    @Override
+    public Row get(int index) {
+        int currentSize = size;
+        if (index < 0 || index >= currentSize) {
+            throw new IndexOutOfBoundsException("Row " + index + " out of " + currentSize);
+        }
+        return rows[index];
+    }
+
+    @Override
+    public boolean add(Row row) {
+        Row[] current = rows;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+            rows = current;
+        }
+        current[size] = row;
+        size = size + 1;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public Row remove(int index) {
+        if (index != size - 1) {
+            throw new UnsupportedOperationException("Only the last row can be removed");
+        }
+        Row row = rows[index];
+        // The slot is not cleared: a reader that saw the old size may still be reading it
+        size = index;
+        modCount++;
+        return row;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,158 @@
+package storage;
+
+import model.Row;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Row list that keeps encoded rows in direct ByteBuffers outside the Java heap. The heap only
+// holds one address per row; rows are decoded into new Row objects on every get. Each value
+// is stored as an int byte length (-1 for NULL) followed by its UTF-8 bytes.
+// Supports appending and removing the last row, which is all the engine does to a table.
+// Writers must hold the table's catalog lock; readers may call size and get at any time without
+// it. Each write stores the row bytes, its address and any new chunk or grown array before the
+// volatile size that publishes it, so a reader that sees a size can decode every row below it.
+public class OffHeapRowList extends AbstractList<Row> {
+    // Chunks start small and double up to the maximum so small tables stay small in direct memory
+    private static final int MIN_CHUNK_SIZE = 4 * 1024;
+    private static final int MAX_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private final int columnCount;
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+    private volatile long[] addresses = new long[16]; // chunk index in the high 32 bits, offset in the low 32
+    private volatile int size;
+    private int writePosition;               // next free offset in the last chunk
+    private long bytesUsed;
+
+    public OffHeapRowList(int columnCount) {
+        this.columnCount = columnCount;
+    }
+
+    @Override
+    public Row get(int index) {
+        int currentSize = size;
+        if (index < 0 || index >= currentSize) {
+            throw new IndexOutOfBoundsException("Row " + index + " out of " + currentSize);
+        }
+        long address = addresses[index];
+        ByteBuffer chunk = chunks[(int) (address >>> 32)];
+        int position = (int) address;
+
+        List<String> values = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            int length = chunk.getInt(position);
+            position += Integer.BYTES;
+            if (length < 0) {
+                values.add(null);
+            } else {
+                byte[] bytes = new byte[length];
+                chunk.get(position, bytes);
+                position += length;
+                values.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+        }
+        return new Row(values);
+    }
+
+    @Override
+    public boolean add(Row row) {
+        if (row.values.size() != columnCount) {
+            throw new IllegalArgumentException("Expected " + columnCount + " values, got " + row.values.size());
+        }
+        byte[][] encoded = new byte[columnCount][];
+        int length = 0;
+        for (int i = 0; i < columnCount; i++) {
+            String value = row.values.get(i);
+            encoded[i] = value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+            length += Integer.BYTES + (value != null ? encoded[i].length : 0);
+        }
+
+        ByteBuffer chunk = reserve(length);
+        int position = writePosition;
+        long[] currentAddresses = addresses;
+        if (size == currentAddresses.length) {
+            currentAddresses = Arrays.copyOf(currentAddresses, size * 2);
+            addresses = currentAddresses;
+        }
+        currentAddresses[size] = ((long) (chunks.length - 1) << 32) | position;
+
+        for (byte[] bytes : encoded) {
+            chunk.putInt(position, bytes != null ? bytes.length : -1);
+            position += Integer.BYTES;
+            if (bytes != null) {
+                chunk.put(position, bytes);
+                position += bytes.length;
+            }
+        }
+        writePosition = position;
+        bytesUsed += length;
+        size = size + 1;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public Row remove(int index) {
+        if (index != size - 1) {
+            throw new UnsupportedOperationException("Only the last row can be removed");
+        }
+        Row row = get(index);
+        // The last row always ends at the write position of the last chunk. Its bytes are not
+        // reused, since a reader that saw the old size may still be decoding them.
+        bytesUsed -= writePosition - (int) addresses[index];
+        size = index;
+        modCount++;
+        return row;
+    }
+
+    @Override
+    public void clear() {
+        chunks = new ByteBuffer[0];
+        addresses = new long[16];
+        size = 0;
+        writePosition = 0;
+        bytesUsed = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Bytes of encoded row data held off-heap
+    public long getBytesUsed() {
+        return bytesUsed;
+    }
+
+    // Bytes of direct memory allocated, including unused space at the end of chunks
+    public long getBytesAllocated() {
+        long total = 0;
+        for (ByteBuffer chunk : chunks) {
+            total += chunk.capacity();
+        }
+        return total;
+    }
+
+    private ByteBuffer reserve(int length) {
+        ByteBuffer[] current = chunks;
+        if (current.length > 0) {
+            ByteBuffer last = current[current.length - 1];
+            if (last.capacity() - writePosition >= length) {
+                return last;
+            }
+        }
+        int chunkSize = current.length == 0 ? MIN_CHUNK_SIZE
+                : Math.min(MAX_CHUNK_SIZE, current[current.length - 1].capacity() * 2);
+        ByteBuffer chunk = ByteBuffer.allocateDirect(Math.max(chunkSize, length));
+        ByteBuffer[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = chunk;
+        chunks = grown;
+        writePosition = 0;
+        return chunk;
+    }
+}
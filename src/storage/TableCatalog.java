@@ -0,0 +1,298 @@
+package storage;
+
+import index.HashIndex;
+import model.Column;
+import model.IndexDefinition;
+import model.Row;
+import model.Table;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory catalog of all tables. The data directory is scanned once by init() and only
+// schema files are read; row data is loaded on the first query that needs it.
+public class TableCatalog {
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Applies to tables whose rows are loaded or created after it is set
+    private static volatile boolean offHeapStorage = Boolean.getBoolean("tinyh2.offHeap");
+    private static volatile boolean initialized;
+
+    // Scans the data directory once; later calls return immediately. Called by every public entry
+    // point, so calling it explicitly only moves the scan to a time of the caller's choosing.
+    public static void init() {
+        if (initialized) {
+            return;
+        }
+        synchronized (TableCatalog.class) {
+            if (initialized) {
+                return;
+            }
+            List<String> tableNames;
+            try {
+                TableStorage.deleteTempFiles();
+                tableNames = TableStorage.listTableNames();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to scan data directory", e);
+            }
+            for (String tableName : tableNames) {
+                try {
+                    Entry entry = new Entry(tableName, TableStorage.loadSchema(tableName));
+                    entry.indexes.addAll(TableStorage.loadIndexes(tableName));
+                    entry.refreshFileMetadata();
+                    entries.put(tableName, entry);
+                } catch (Exception e) {
+                    // A broken table must not take the others down with it
+                    System.err.println("Skipping table " + tableName + " ==> " + e.getMessage());
+                }
+            }
+            initialized = true;
+        }
+    }
+
+    public static class Entry {
+        public final String name;
+        public final List<Column> columns;
+        private final List<IndexDefinition> indexes = new ArrayList<>();
+        private final Map<String, HashIndex> hashIndexes = new HashMap<>(); // by column, built with the rows
+        private volatile long dataSize;
+        private volatile long lastModified;
+        private volatile long rowCount = -1; // -1 until the data has been read
+        private volatile long version;       // bumped on every write to the table
+        private Table table;                 // null until the data has been read
+
+        private Entry(String name, List<Column> columns) {
+            this.name = name;
+            this.columns = columns;
+        }
+
+        public long getDataSize() {
+            return dataSize;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public synchronized boolean isLoaded() {
+            return table != null;
+        }
+
+        // Direct memory held by the rows, 0 if they are on the heap or not loaded
+        public synchronized long getOffHeapBytes() {
+            if (table != null && table.rows instanceof OffHeapRowList) {
+                return ((OffHeapRowList) table.rows).getBytesAllocated();
+            }
+            return 0;
+        }
+
+        public synchronized List<IndexDefinition> getIndexes() {
+            return new ArrayList<>(indexes);
+        }
+
+        // Index on the given column, or null if it has none
+        public synchronized IndexDefinition findIndex(String columnName) {
+            for (IndexDefinition index : indexes) {
+                if (index.columnName.equalsIgnoreCase(columnName)) {
+                    return index;
+                }
+            }
+            return null;
+        }
+
+        private int columnIndex(String columnName) {
+            for (int i = 0; i < columns.size(); i++) {
+                if (columns.get(i).name.equalsIgnoreCase(columnName)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void buildIndex(IndexDefinition index) {
+            int colIndex = columnIndex(index.columnName);
+            HashIndex hashIndex = HashIndex.forType(columns.get(colIndex).dataType);
+            for (int rowId = 0; rowId < table.rows.size(); rowId++) {
+                hashIndex.add(table.rows.get(rowId).values.get(colIndex), rowId);
+            }
+            hashIndexes.put(index.columnName.toLowerCase(), hashIndex);
+        }
+
+        private void refreshFileMetadata() throws IOException {
+            Path dataPath = TableStorage.dataPath(name);
+            if (Files.exists(dataPath)) {
+                dataSize = Files.size(dataPath);
+                lastModified = Files.getLastModifiedTime(dataPath).toMillis();
+            } else {
+                dataSize = 0;
+                lastModified = 0;
+            }
+        }
+    }
+
+    public static void setOffHeapStorage(boolean enabled) {
+        offHeapStorage = enabled;
+    }
+
+    public static boolean isOffHeapStorage() {
+        return offHeapStorage;
+    }
+
+    private static Table newTable(String name, List<Column> columns) {
+        // Both lists can be scanned without the entry lock while insertRow appends under it
+        List<Row> rows = offHeapStorage ? new OffHeapRowList(columns.size()) : new AppendOnlyRowList();
+        return new Table(name, columns, rows);
+    }
+
+    public static boolean tableExists(String tableName) {
+        init();
+        return entries.containsKey(tableName);
+    }
+
+    public static Entry getEntry(String tableName) {
+        init();
+        Entry entry = entries.get(tableName);
+        if (entry == null) {
+            throw new RuntimeException("Table not found: " + tableName);
+        }
+        return entry;
+    }
+
+    public static List<String> getTableNames() {
+        init();
+        return new ArrayList<>(entries.keySet());
+    }
+
+    // Returns the table with its rows, reading the data file on first access
+    public static Table getTable(String tableName) {
+        Entry entry = getEntry(tableName);
+        synchronized (entry) {
+            if (entry.table == null) {
+                Table table = newTable(entry.name, entry.columns);
+                try {
+                    TableStorage.loadData(table);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to load table: " + tableName, e);
+                }
+                entry.table = table;
+                entry.rowCount = table.rows.size();
+                for (IndexDefinition index : entry.indexes) {
+                    entry.buildIndex(index);
+                }
+            }
+            return entry.table;
+        }
+    }
+
+    // Only the name and columns of the definition are used
+    public static void createTable(Table definition) {
+        init();
+        Table table = newTable(definition.name, definition.columns);
+        Entry entry = new Entry(table.name, table.columns);
+        if (entries.putIfAbsent(table.name, entry) != null) {
+            throw new RuntimeException("Table already exists: " + table.name);
+        }
+        synchronized (entry) {
+            try {
+                writeTable(entry, table);
+            } catch (RuntimeException e) {
+                entries.remove(table.name);
+                throw e;
+            }
+            entry.table = table;
+        }
+    }
+
+    // Appends a row to a table, persists it and adds it to the table's indexes
+    public static void insertRow(String tableName, Row row) {
+        Table table = getTable(tableName);
+        Entry entry = getEntry(tableName);
+        synchronized (entry) {
+            entry.version++;
+            table.rows.add(row);
+            try {
+                TableStorage.appendRow(table, row);
+                entry.rowCount = table.rows.size();
+                entry.refreshFileMetadata();
+            } catch (IOException e) {
+                // Keep the cached rows in step with the file
+                table.rows.remove(table.rows.size() - 1);
+                throw new RuntimeException("Failed to save table: " + tableName, e);
+            }
+            int rowId = table.rows.size() - 1;
+            for (IndexDefinition index : entry.indexes) {
+                entry.hashIndexes.get(index.columnName.toLowerCase())
+                        .add(row.values.get(entry.columnIndex(index.columnName)), rowId);
+            }
+        }
+    }
+
+    public static void createIndex(String tableName, IndexDefinition index) {
+        Entry entry = getEntry(tableName);
+        synchronized (entry) {
+            if (entry.columnIndex(index.columnName) < 0) {
+                throw new RuntimeException("Column does not exist: " + index.columnName);
+            }
+            for (IndexDefinition existing : entry.indexes) {
+                if (existing.name.equalsIgnoreCase(index.name)) {
+                    throw new RuntimeException("Index already exists: " + index.name);
+                }
+                if (existing.columnName.equalsIgnoreCase(index.columnName)) {
+                    throw new RuntimeException("Column is already indexed: " + index.columnName);
+                }
+            }
+
+            entry.indexes.add(index);
+            try {
+                TableStorage.saveIndexes(tableName, entry.indexes);
+            } catch (IOException e) {
+                entry.indexes.remove(index);
+                throw new RuntimeException("Failed to save indexes for table: " + tableName, e);
+            }
+            if (entry.table != null) {
+                entry.buildIndex(index);
+            }
+        }
+    }
+
+    // Rows whose column equals the validated value, or null if the column has no index
+    public static List<Row> lookup(String tableName, String columnName, String value) {
+        Table table = getTable(tableName);
+        Entry entry = getEntry(tableName);
+        synchronized (entry) {
+            HashIndex hashIndex = entry.hashIndexes.get(columnName.toLowerCase());
+            if (hashIndex == null) {
+                return null;
+            }
+            List<Row> rows = new ArrayList<>();
+            for (int rowId : hashIndex.lookup(value)) {
+                rows.add(table.rows.get(rowId));
+            }
+            return rows;
+        }
+    }
+
+    private static void writeTable(Entry entry, Table table) {
+        entry.version++;
+        TableStorage.saveTableToCSV(table);
+        entry.rowCount = table.rows.size();
+        try {
+            entry.refreshFileMetadata();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read metadata for table: " + table.name, e);
+        }
+    }
+}
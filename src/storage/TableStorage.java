@@ -1,6 +1,7 @@
 package storage;
 
 import model.Column;
+import model.IndexDefinition;
 import model.Row;
 import model.Table;
 import org.apache.commons.csv.CSVFormat;
@@ -9,16 +10,29 @@ import org.apache.commons.csv.CSVPrinter;
 import org.apache.commons.csv.CSVRecord;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
-public class TableStorage {
+// File layout of the tables under data/. Only TableCatalog uses this, so that every read and
+// write of a table goes through the catalog and its version counter.
+class TableStorage {
     private static final String DATA_DIR = "data";
     private static final String SCHEMA_SUFFIX = "_schema.csv";
     private static final String DATA_SUFFIX = "_data.csv";
+    private static final String INDEXES_SUFFIX = "_indexes.csv";
+    private static final String TEMP_SUFFIX = ".tmp";
+    // Fixed rather than the platform default so that files written and appended to by different
+    // code paths, or on different machines, always agree
+    private static final Charset CHARSET = StandardCharsets.UTF_8;
 
     static {
         try {
@@ -28,7 +42,7 @@ public class TableStorage {
         }
     }
 
-    public static void saveTableToCSV(Table table) {
+    static void saveTableToCSV(Table table) {
         try {
             saveSchema(table);
             saveData(table);
@@ -40,7 +54,7 @@ public class TableStorage {
     private static void saveSchema(Table table) throws IOException {
         Path schemaPath = Paths.get(DATA_DIR, table.name + SCHEMA_SUFFIX);
 
-        try (FileWriter writer = new FileWriter(schemaPath.toFile());
+        try (BufferedWriter writer = Files.newBufferedWriter(schemaPath, CHARSET);
              CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT)) {
 
             for (Column column : table.columns) {
@@ -49,42 +63,86 @@ public class TableStorage {
         }
     }
 
+    // Writes the table to <table>_data.csv.tmp and renames it over the data file, so a failed
+    // write never leaves a partially written data file behind. The temp file is forced to disk
+    // before the rename and the directory after it, so a crash cannot leave the new name
+    // pointing at data that never reached the disk, or lose the rename itself.
     private static void saveData(Table table) throws IOException {
-        Path dataPath = Paths.get(DATA_DIR, table.name + DATA_SUFFIX);
+        Path tempPath = tempDataPath(table.name);
 
-        try (FileWriter writer = new FileWriter(dataPath.toFile());
-             CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT)) {
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tempPath, CHARSET);
+                 CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT)) {
 
-            // Write header
-            List<String> headers = new ArrayList<>();
-            for (Column column : table.columns) {
-                headers.add(column.name);
-            }
-            printer.printRecord(headers);
+                // Write header
+                List<String> headers = new ArrayList<>();
+                for (Column column : table.columns) {
+                    headers.add(column.name);
+                }
+                printer.printRecord(headers);
 
-            // Write data
-            for (Row row : table.rows) {
-                List<String> rowValues = new ArrayList<>();
-                for (String val : row.values) {
-                    rowValues.add(val != null ? val : "NULL");
+                // Write data
+                for (Row row : table.rows) {
+                    printRow(printer, row);
                 }
-                printer.printRecord(rowValues);
             }
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(tempPath, dataPath(table.name),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
         }
+        syncDataDirectory();
     }
 
-    public static Table loadTableFromCSV(String tableName) {
+    // Flushes the directory entries, making a rename durable
+    private static void syncDataDirectory() throws IOException {
+        FileChannel channel;
         try {
-            List<Column> columns = loadSchema(tableName);
-            Table table = new Table(tableName, columns);
-            loadData(table);
-            return table;
+            channel = FileChannel.open(Paths.get(DATA_DIR), StandardOpenOption.READ);
         } catch (IOException e) {
-            throw new RuntimeException("Failed to load table: " + tableName, e);
+            // Some platforms, such as Windows, cannot open a directory; they have nothing to sync
+            return;
+        }
+        try (FileChannel directory = channel) {
+            directory.force(true);
+        }
+    }
+
+    // Removes temporary data files left behind by a save that was interrupted before its rename
+    static void deleteTempFiles() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(DATA_DIR), "*" + DATA_SUFFIX + "*" + TEMP_SUFFIX)) {
+            for (Path path : stream) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    // Appends a single row to the end of the data file instead of rewriting the table
+    static void appendRow(Table table, Row row) throws IOException {
+        if (!Files.exists(dataPath(table.name))) {
+            saveData(table);
+            return;
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(dataPath(table.name), CHARSET, StandardOpenOption.APPEND);
+             CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT)) {
+            printRow(printer, row);
+        }
+    }
+
+    private static void printRow(CSVPrinter printer, Row row) throws IOException {
+        List<String> rowValues = new ArrayList<>();
+        for (String val : row.values) {
+            rowValues.add(val != null ? val : "NULL");
         }
+        printer.printRecord(rowValues);
     }
 
-    private static List<Column> loadSchema(String tableName) throws IOException {
+    static List<Column> loadSchema(String tableName) throws IOException {
         Path schemaPath = Paths.get(DATA_DIR, tableName + SCHEMA_SUFFIX);
 
         if (!Files.exists(schemaPath)) {
@@ -93,7 +151,7 @@ public class TableStorage {
 
         List<Column> columns = new ArrayList<>();
 
-        try (FileReader reader = new FileReader(schemaPath.toFile());
+        try (BufferedReader reader = Files.newBufferedReader(schemaPath, CHARSET);
              CSVParser parser = new CSVParser(reader, CSVFormat.DEFAULT)) {
 
             for (CSVRecord record : parser) {
@@ -104,14 +162,14 @@ public class TableStorage {
         return columns;
     }
 
-    private static void loadData(Table table) throws IOException {
+    static void loadData(Table table) throws IOException {
         Path dataPath = Paths.get(DATA_DIR, table.name + DATA_SUFFIX);
 
         if (!Files.exists(dataPath)) {
             return;
         }
 
-        try (FileReader reader = new FileReader(dataPath.toFile());
+        try (BufferedReader reader = Files.newBufferedReader(dataPath, CHARSET);
              CSVParser parser = new CSVParser(reader, CSVFormat.DEFAULT.withFirstRecordAsHeader())) {
 
             for (CSVRecord record : parser) {
@@ -133,8 +191,55 @@ public class TableStorage {
     }
 
 
-    public static boolean tableExists(String tableName) {
-        Path schemaPath = Paths.get(DATA_DIR, tableName + SCHEMA_SUFFIX);
-        return Files.exists(schemaPath);
+    // Index definitions only; the index contents are rebuilt from the data when a table is loaded
+    static void saveIndexes(String tableName, List<IndexDefinition> indexes) throws IOException {
+        Path indexesPath = Paths.get(DATA_DIR, tableName + INDEXES_SUFFIX);
+
+        try (BufferedWriter writer = Files.newBufferedWriter(indexesPath, CHARSET);
+             CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT)) {
+
+            for (IndexDefinition index : indexes) {
+                printer.printRecord(index.name, index.columnName, index.method);
+            }
+        }
+    }
+
+    static List<IndexDefinition> loadIndexes(String tableName) throws IOException {
+        Path indexesPath = Paths.get(DATA_DIR, tableName + INDEXES_SUFFIX);
+        List<IndexDefinition> indexes = new ArrayList<>();
+
+        if (!Files.exists(indexesPath)) {
+            return indexes;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(indexesPath, CHARSET);
+             CSVParser parser = new CSVParser(reader, CSVFormat.DEFAULT)) {
+
+            for (CSVRecord record : parser) {
+                indexes.add(new IndexDefinition(record.get(0), record.get(1), record.get(2)));
+            }
+        }
+
+        return indexes;
+    }
+
+    // Names of all tables that have a schema file in the data directory
+    static List<String> listTableNames() throws IOException {
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(DATA_DIR), "*" + SCHEMA_SUFFIX)) {
+            for (Path path : stream) {
+                String fileName = path.getFileName().toString();
+                names.add(fileName.substring(0, fileName.length() - SCHEMA_SUFFIX.length()));
+            }
+        }
+        return names;
+    }
+
+    static Path dataPath(String tableName) {
+        return Paths.get(DATA_DIR, tableName + DATA_SUFFIX);
+    }
+
+    private static Path tempDataPath(String tableName) {
+        return Paths.get(DATA_DIR, tableName + DATA_SUFFIX + TEMP_SUFFIX);
     }
 }
\ No newline at end of file